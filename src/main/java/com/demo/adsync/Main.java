@@ -1,9 +1,14 @@
 // src/main/java/com/demo/adsync/Main.java
 package com.demo.adsync;
 
+import com.demo.adsync.mapping.AttributeMapping;
 import com.demo.adsync.service.LDAPService;
 import com.demo.adsync.service.SalesforceService;
+import com.demo.adsync.sync.OrgTarget;
 import com.demo.adsync.sync.SyncOrchestrator;
+import com.demo.adsync.sync.SyncPlanExecutor;
+import com.demo.adsync.sync.SyncPlanWriter;
+import com.demo.adsync.sync.SyncPlanner;
 import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.builder.fluent.Configurations;
 import org.quartz.*;
@@ -11,6 +16,16 @@ import org.quartz.impl.StdSchedulerFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
     
@@ -20,25 +35,34 @@ public class Main {
             Configurations configs = new Configurations();
             Configuration config = configs.properties("application.properties");
             
+            // Compile the LDAP -> Salesforce field mapping once
+            AttributeMapping mapping = AttributeMapping.fromConfiguration(config);
+            
             // Create services
             LDAPService ldapService = new LDAPService(
                 config.getString("ldap.host"),
                 config.getInt("ldap.port"),
                 config.getString("ldap.bindDN"),
                 config.getString("ldap.bindPassword"),
-                config.getString("ldap.baseDN")
+                config.getString("ldap.baseDN"),
+                mapping
             );
             
-            SalesforceService salesforceService = new SalesforceService(
-                config.getString("salesforce.username"),
-                config.getString("salesforce.password"),
-                config.getString("salesforce.securityToken"),
-                config.getString("salesforce.loginUrl")
-            );
+            // Create one target per Salesforce org
+            List<OrgTarget> targets = createTargets(config, mapping);
+            
+            // One-off commands (plan/apply) instead of a sync run
+            if (args.length > 0) {
+                if (!runCommand(args, ldapService, targets)) {
+                    System.exit(1);
+                }
+                return;
+            }
             
             // Create orchestrator
             SyncOrchestrator orchestrator = new SyncOrchestrator(
-                ldapService, salesforceService
+                ldapService, targets,
+                config.getBoolean("sync.groups.enabled", false)
             );
             
             // Run sync immediately
@@ -57,6 +81,110 @@ public class Main {
         }
     }
     
+    /**
+     * Build sync targets from salesforce.orgs (e.g. "prod,sandbox1"), reading
+     * salesforce.<org>.* for each. Without salesforce.orgs the single
+     * salesforce.* org is used.
+     */
+    private static List<OrgTarget> createTargets(Configuration config, 
+                                                 AttributeMapping mapping) {
+        List<OrgTarget> targets = new ArrayList<>();
+        String orgs = config.getString("salesforce.orgs", "");
+        
+        if (orgs.trim().isEmpty()) {
+            targets.add(createTarget(config, mapping, "default", "salesforce."));
+            return targets;
+        }
+        
+        for (String org : orgs.split(",")) {
+            org = org.trim();
+            if (!org.isEmpty()) {
+                targets.add(createTarget(config, mapping, org, "salesforce." + org + "."));
+            }
+        }
+        return targets;
+    }
+    
+    private static OrgTarget createTarget(Configuration config, AttributeMapping mapping,
+                                          String name, String prefix) {
+        SalesforceService salesforceService = new SalesforceService(
+            config.getString(prefix + "username"),
+            config.getString(prefix + "password"),
+            config.getString(prefix + "securityToken"),
+            config.getString(prefix + "loginUrl"),
+            mapping
+        );
+        
+        return new OrgTarget(name, salesforceService,
+            config.getInt(prefix + "threads", 1),
+            config.getInt(prefix + "maxRetries", 0));
+    }
+    
+    // plan <file> [jsonl|csv] [org]  - write a dry-run plan without changing Salesforce
+    // apply <file> [org]             - execute a saved JSONL plan exactly as planned
+    // Returns false when any planned write failed.
+    private static boolean runCommand(String[] args, LDAPService ldapService,
+                                   List<OrgTarget> targets) throws Exception {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                "Usage: plan <file> [jsonl|csv] [org] | apply <file> [org]");
+        }
+        Path file = Paths.get(args[1]);
+        
+        if ("plan".equals(args[0])) {
+            SyncPlanWriter.Format format = args.length > 2 ?
+                SyncPlanWriter.Format.valueOf(args[2].toUpperCase(Locale.ROOT)) :
+                SyncPlanWriter.Format.JSONL;
+            OrgTarget target = findTarget(targets, args.length > 3 ? args[3] : null);
+            SalesforceService salesforceService = target.getSalesforceService();
+            
+            // Only a complete plan is moved into place; a failed run leaves no file behind
+            Path partial = file.resolveSibling(file.getFileName() + ".partial");
+            SyncPlanner.Summary summary;
+            try (Writer out = Files.newBufferedWriter(partial, StandardCharsets.UTF_8);
+                 SyncPlanWriter writer = new SyncPlanWriter(out, format)) {
+                ldapService.connect();
+                salesforceService.connect();
+                summary = new SyncPlanner(ldapService, salesforceService, target.getName()).plan(writer);
+            } catch (Exception e) {
+                Files.deleteIfExists(partial);
+                throw e;
+            } finally {
+                ldapService.disconnect();
+                salesforceService.disconnect();
+            }
+            
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Wrote sync plan to {}: {}", file, summary);
+            return true;
+        } else if ("apply".equals(args[0])) {
+            OrgTarget target = findTarget(targets, args.length > 2 ? args[2] : null);
+            SalesforceService salesforceService = target.getSalesforceService();
+            
+            try {
+                salesforceService.connect();
+                int[] totals = new SyncPlanExecutor(target.getName(), salesforceService).execute(file);
+                return totals[1] == 0;
+            } finally {
+                salesforceService.disconnect();
+            }
+        } else {
+            throw new IllegalArgumentException("Unknown command: " + args[0]);
+        }
+    }
+    
+    private static OrgTarget findTarget(List<OrgTarget> targets, String name) {
+        if (name == null) {
+            return targets.get(0);
+        }
+        for (OrgTarget target : targets) {
+            if (target.getName().equals(name)) {
+                return target;
+            }
+        }
+        throw new IllegalArgumentException("Unknown org: " + name);
+    }
+    
     private static void scheduleSync(SyncOrchestrator orchestrator, 
                                     Configuration config) throws SchedulerException {
         String cronExpression = config.getString("sync.scheduled.cron", "0 0 * * * ?");
@@ -0,0 +1,307 @@
+// src/main/java/com/demo/adsync/mapping/AttributeMapping.java
+package com.demo.adsync.mapping;
+
+import com.demo.adsync.model.ADUser;
+import com.unboundid.ldap.sdk.Entry;
+import org.apache.commons.configuration2.Configuration;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * LDAP to AD_User__c field mapping, compiled once at startup.
+ *
+ * Each Salesforce field is read from the first non-empty LDAP attribute in
+ * its source list, then transformed, truncated and defaulted. Configuration
+ * is resolved into flat per-field arrays up front, so mapping an entry is a
+ * straight loop with no configuration lookups, reflection or formatting.
+ *
+ * Configuration (application.properties):
+ * <pre>
+ *   mapping.fields=Name,AD_Username__c,...      fields to sync, in order
+ *   mapping.&lt;field&gt;.source=uid|cn                LDAP attributes, first non-empty wins
+ *                                                ("dn" is the entry DN)
+ *   mapping.&lt;field&gt;.property=username            ADUser property to populate
+ *   mapping.&lt;field&gt;.default=                     value when no source is set
+ *   mapping.&lt;field&gt;.maxLength=255                truncate longer values
+ *   mapping.&lt;field&gt;.transform=trim|lower|upper
+ * </pre>
+ * Built-in fields keep their defaults unless overridden. AD_Object_GUID__c
+ * must be mapped to the objectGuid property: users are upserted on it.
+ */
+public class AttributeMapping {
+    public static final String DN_SOURCE = "dn";
+    public static final String GUID_FIELD = "AD_Object_GUID__c";
+
+    public enum Transform { NONE, TRIM, LOWER, UPPER }
+
+    // Built-in field definitions: source, property, default, maxLength
+    private static final Map<String, String[]> BUILT_IN = new LinkedHashMap<>();
+    static {
+        BUILT_IN.put("Name", new String[] { "uid|cn|mail|entryUUID", null, null, null });
+        BUILT_IN.put("AD_Username__c", new String[] { "uid|cn", "username", "", null });
+        BUILT_IN.put("AD_Email__c", new String[] { "mail", "email", "", null });
+        BUILT_IN.put("AD_Distinguished_Name__c",
+            new String[] { DN_SOURCE, "distinguishedName", "", null });
+        BUILT_IN.put("AD_Department__c",
+            new String[] { "departmentNumber", "department", "", null });
+        BUILT_IN.put("AD_Manager__c", new String[] { "manager", "manager", "", "255" });
+        BUILT_IN.put("AD_Object_GUID__c",
+            new String[] { "entryUUID|cn", "objectGuid", null, null });
+    }
+
+    private final String[] fieldNames;
+    private final String[][] sources;
+    private final BiConsumer<ADUser, String>[] properties;
+    private final Function<ADUser, String>[] getters;
+    private final String[] defaults;
+    private final int[] maxLengths;
+    private final Transform[] transforms;
+    private final String[] ldapAttributes;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private AttributeMapping(List<String> names, Configuration config) {
+        int count = names.size();
+        fieldNames = names.toArray(new String[0]);
+        sources = new String[count][];
+        properties = new BiConsumer[count];
+        getters = new Function[count];
+        defaults = new String[count];
+        maxLengths = new int[count];
+        transforms = new Transform[count];
+
+        Set<String> attributes = new LinkedHashSet<>();
+        String guidProperty = null;
+
+        for (int i = 0; i < count; i++) {
+            String name = fieldNames[i];
+            String[] builtIn = BUILT_IN.getOrDefault(name, new String[4]);
+            String prefix = "mapping." + name + ".";
+
+            String source = setting(config, prefix + "source", builtIn[0]);
+            if (source == null || source.trim().isEmpty()) {
+                throw new IllegalArgumentException("No LDAP source configured for field " + name);
+            }
+            List<String> sourceList = new ArrayList<>();
+            for (String attribute : source.split("\\|")) {
+                attribute = attribute.trim();
+                if (!attribute.isEmpty()) {
+                    sourceList.add(attribute.toLowerCase(Locale.ROOT));
+                    if (!DN_SOURCE.equalsIgnoreCase(attribute)) {
+                        attributes.add(attribute);
+                    }
+                }
+            }
+            sources[i] = sourceList.toArray(new String[0]);
+
+            String property = setting(config, prefix + "property", builtIn[1]);
+            properties[i] = propertySetter(name, property);
+            getters[i] = propertyGetter(property);
+            if (GUID_FIELD.equals(name)) {
+                guidProperty = property;
+            }
+
+            defaults[i] = setting(config, prefix + "default", builtIn[2]);
+
+            String maxLength = setting(config, prefix + "maxLength", builtIn[3]);
+            maxLengths[i] = maxLength != null ? Integer.parseInt(maxLength.trim()) : Integer.MAX_VALUE;
+
+            String transform = setting(config, prefix + "transform", null);
+            transforms[i] = transform != null ?
+                Transform.valueOf(transform.trim().toUpperCase(Locale.ROOT)) : Transform.NONE;
+        }
+
+        if (!"objectGuid".equals(guidProperty)) {
+            throw new IllegalArgumentException(
+                "Attribute mapping must map " + GUID_FIELD + " to the objectGuid property");
+        }
+        ldapAttributes = attributes.toArray(new String[0]);
+    }
+
+    /**
+     * The built-in mapping, matching the fields synced before mapping was configurable
+     */
+    public static AttributeMapping defaults() {
+        return new AttributeMapping(new ArrayList<>(BUILT_IN.keySet()), null);
+    }
+
+    public static AttributeMapping fromConfiguration(Configuration config) {
+        String fields = config.getString("mapping.fields", "");
+        List<String> names = new ArrayList<>();
+        for (String name : fields.split(",")) {
+            if (!name.trim().isEmpty()) {
+                names.add(name.trim());
+            }
+        }
+        if (names.isEmpty()) {
+            names.addAll(BUILT_IN.keySet());
+        }
+        return new AttributeMapping(names, config);
+    }
+
+    private static String setting(Configuration config, String key, String builtIn) {
+        return config != null ? config.getString(key, builtIn) : builtIn;
+    }
+
+    private static BiConsumer<ADUser, String> propertySetter(String field, String property) {
+        if (property == null || property.isEmpty()) {
+            return null;
+        }
+        switch (property) {
+            case "username": return ADUser::setUsername;
+            case "email": return ADUser::setEmail;
+            case "distinguishedName": return ADUser::setDistinguishedName;
+            case "department": return ADUser::setDepartment;
+            case "manager": return ADUser::setManager;
+            case "title": return ADUser::setTitle;
+            case "objectGuid": return ADUser::setObjectGuid;
+            default:
+                throw new IllegalArgumentException(
+                    "Unknown ADUser property '" + property + "' for field " + field);
+        }
+    }
+
+    // Same property names as propertySetter, which has already validated them
+    private static Function<ADUser, String> propertyGetter(String property) {
+        if (property == null || property.isEmpty()) {
+            return null;
+        }
+        switch (property) {
+            case "username": return ADUser::getUsername;
+            case "email": return ADUser::getEmail;
+            case "distinguishedName": return ADUser::getDistinguishedName;
+            case "department": return ADUser::getDepartment;
+            case "manager": return ADUser::getManager;
+            case "title": return ADUser::getTitle;
+            case "objectGuid": return ADUser::getObjectGuid;
+            default: return null;
+        }
+    }
+
+    /**
+     * Salesforce field names, in the order of ADUser.getFieldValues()
+     */
+    public String[] getFieldNames() { return fieldNames; }
+
+    /**
+     * LDAP attributes the mapping reads; the only ones worth requesting
+     */
+    public String[] getLdapAttributes() { return ldapAttributes; }
+
+    /**
+     * Map an LDAP entry to an ADUser carrying the final Salesforce field values
+     */
+    public ADUser toADUser(Entry entry) {
+        ADUser user = new ADUser();
+        // Group membership resolution relies on the DN whatever the mapping says
+        user.setDistinguishedName(entry.getDN());
+        String[] values = new String[fieldNames.length];
+
+        for (int i = 0; i < values.length; i++) {
+            String value = null;
+            for (String source : sources[i]) {
+                value = source.equals(DN_SOURCE) ? entry.getDN() : entry.getAttributeValue(source);
+                if (value != null && !value.isEmpty()) {
+                    break;
+                }
+            }
+
+            if (value != null) {
+                switch (transforms[i]) {
+                    case TRIM: value = value.trim(); break;
+                    case LOWER: value = value.toLowerCase(Locale.ROOT); break;
+                    case UPPER: value = value.toUpperCase(Locale.ROOT); break;
+                    default: break;
+                }
+                if (properties[i] != null) {
+                    properties[i].accept(user, value);
+                }
+                if (value.length() > maxLengths[i]) {
+                    value = value.substring(0, maxLengths[i]);
+                }
+            } else {
+                value = defaults[i];
+            }
+            values[i] = value;
+        }
+
+        user.setFieldValues(this, values);
+        return user;
+    }
+
+    /**
+     * Field values of a user, in the order of getFieldNames(). Users built by
+     * hand rather than by toADUser are mapped from their bean properties.
+     *
+     * @throws IllegalArgumentException if the user was read through another mapping,
+     *         whose values do not line up with these fields
+     */
+    public String[] valuesOf(ADUser user) {
+        String[] values = user.getFieldValues();
+        if (values == null) {
+            return fromProperties(user);
+        }
+        if (user.getMapping() != this) {
+            throw new IllegalArgumentException(
+                "User " + user.getObjectGuid() + " was read through a different attribute mapping");
+        }
+        return values;
+    }
+
+    private String[] fromProperties(ADUser user) {
+        String[] values = new String[fieldNames.length];
+        for (int i = 0; i < values.length; i++) {
+            String value;
+            if (getters[i] != null) {
+                value = getters[i].apply(user);
+            } else if ("Name".equals(fieldNames[i])) {
+                value = displayName(user);
+            } else {
+                // Nothing on the bean corresponds to this field
+                continue;
+            }
+
+            if (value == null) {
+                value = defaults[i];
+            } else if (value.length() > maxLengths[i]) {
+                value = value.substring(0, maxLengths[i]);
+            }
+            values[i] = value;
+        }
+        return values;
+    }
+
+    // Username, else email, else GUID, as Name was populated before mapping
+    private static String displayName(ADUser user) {
+        if (user.getUsername() != null && !user.getUsername().isEmpty()) {
+            return user.getUsername();
+        }
+        if (user.getEmail() != null && !user.getEmail().isEmpty()) {
+            return user.getEmail();
+        }
+        return user.getObjectGuid();
+    }
+
+    /**
+     * Write the mapped values of a user into a Salesforce record
+     */
+    public JSONObject toRecord(ADUser user) {
+        String[] values = valuesOf(user);
+
+        JSONObject record = new JSONObject();
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (values[i] != null) {
+                record.put(fieldNames[i], values[i]);
+            }
+        }
+        return record;
+    }
+}
@@ -0,0 +1,53 @@
+// src/main/java/com/demo/adsync/model/ADGroup.java
+package com.demo.adsync.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ADGroup {
+    private String name;
+    private String description;
+    private String distinguishedName;
+    private String objectGuid;
+    private List<String> memberDNs;
+    private LocalDateTime lastSynced;
+
+    // Constructor
+    public ADGroup() {
+        this.memberDNs = new ArrayList<>();
+        this.lastSynced = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public String getDistinguishedName() { return distinguishedName; }
+    public void setDistinguishedName(String distinguishedName) {
+        this.distinguishedName = distinguishedName;
+    }
+
+    public String getObjectGuid() { return objectGuid; }
+    public void setObjectGuid(String objectGuid) { this.objectGuid = objectGuid; }
+
+    /**
+     * Direct member DNs (users and nested groups), as read from LDAP
+     */
+    public List<String> getMemberDNs() { return memberDNs; }
+    public void setMemberDNs(List<String> memberDNs) { this.memberDNs = memberDNs; }
+
+    public LocalDateTime getLastSynced() { return lastSynced; }
+    public void setLastSynced(LocalDateTime lastSynced) {
+        this.lastSynced = lastSynced;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ADGroup[name=%s, members=%d]",
+            name, memberDNs.size());
+    }
+}
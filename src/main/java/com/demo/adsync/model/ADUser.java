@@ -1,6 +1,8 @@
 // src/main/java/com/demo/adsync/model/ADUser.java
 package com.demo.adsync.model;
 
+import com.demo.adsync.mapping.AttributeMapping;
+
 import java.time.LocalDateTime;
 
 public class ADUser {
@@ -12,6 +14,8 @@ public class ADUser {
     private String objectGuid;
     private String title;
     private LocalDateTime lastSynced;
+    private String[] fieldValues;
+    private AttributeMapping mapping;
 
     // Constructor
     public ADUser() {
@@ -47,6 +51,21 @@ public class ADUser {
         this.lastSynced = lastSynced; 
     }
 
+    /**
+     * Mapped Salesforce field values, ordered as getMapping().getFieldNames()
+     */
+    public String[] getFieldValues() { return fieldValues; }
+
+    /**
+     * The mapping that produced getFieldValues(), or null for hand-built users
+     */
+    public AttributeMapping getMapping() { return mapping; }
+
+    public void setFieldValues(AttributeMapping mapping, String[] fieldValues) {
+        this.mapping = mapping;
+        this.fieldValues = fieldValues;
+    }
+
     @Override
     public String toString() {
         return String.format("ADUser[username=%s, email=%s, department=%s]", 
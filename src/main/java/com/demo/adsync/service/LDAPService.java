@@ -1,31 +1,47 @@
 // src/main/java/com/demo/adsync/service/LDAPService.java
 package com.demo.adsync.service;
 
+import com.demo.adsync.mapping.AttributeMapping;
+import com.demo.adsync.model.ADGroup;
 import com.demo.adsync.model.ADUser;
+import com.unboundid.asn1.ASN1OctetString;
 import com.unboundid.ldap.sdk.*;
+import com.unboundid.ldap.sdk.controls.SimplePagedResultsControl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
 
 public class LDAPService {
     private static final Logger logger = LoggerFactory.getLogger(LDAPService.class);
+    private static final String[] MEMBER_ATTRIBUTES = { "member", "uniqueMember" };
+    private static final String RANGE_OPTION = "range=";
+    private static final int PAGE_SIZE = 1000;
     
     private String ldapHost;
     private int ldapPort;
     private String bindDN;
     private String bindPassword;
     private String baseDN;
+    private AttributeMapping mapping;
     private LDAPConnection connection;
 
     public LDAPService(String host, int port, String bindDN, 
                        String bindPassword, String baseDN) {
+        this(host, port, bindDN, bindPassword, baseDN, AttributeMapping.defaults());
+    }
+
+    public LDAPService(String host, int port, String bindDN, 
+                       String bindPassword, String baseDN, AttributeMapping mapping) {
         this.ldapHost = host;
         this.ldapPort = port;
         this.bindDN = bindDN;
         this.bindPassword = bindPassword;
         this.baseDN = baseDN;
+        this.mapping = mapping;
     }
 
     public void connect() throws LDAPException {
@@ -44,58 +60,205 @@ public class LDAPService {
 
     public List<ADUser> fetchUsers() throws LDAPException {  // Fixed: Added throws declaration
         List<ADUser> users = new ArrayList<>();
-        
+        streamUsers(users::add);
+        return users;
+    }
+
+    /**
+     * Hand each LDAP user to the consumer as it is read. Results are fetched
+     * in pages, so only one page of entries is held in memory at a time.
+     */
+    public void streamUsers(Consumer<ADUser> consumer) throws LDAPException {
         if (connection == null || !connection.isConnected()) {
             throw new LDAPException(ResultCode.CONNECT_ERROR, 
                 "Not connected to LDAP");
         }
 
-        // Search for users
+        // Search for users, requesting only the attributes the mapping reads
         String searchFilter = "(objectClass=inetOrgPerson)";
         SearchRequest searchRequest = new SearchRequest(
             "ou=users," + baseDN,
             SearchScope.SUB,
             searchFilter,
-            "cn", "uid", "mail", "departmentNumber", "title", 
-            "entryUUID", "entryDN", "manager"
+            mapping.getLdapAttributes()
         );
 
         logger.info("Searching LDAP with filter: {}", searchFilter);
         
+        int entryCount = 0;
         try {
-            SearchResult searchResult = connection.search(searchRequest);
-            
-            logger.info("Found {} LDAP entries", searchResult.getEntryCount());
-
-            // Convert LDAP entries to ADUser objects
-            for (SearchResultEntry entry : searchResult.getSearchEntries()) {
-                ADUser user = new ADUser();
-                
-                user.setUsername(entry.getAttributeValue("uid") != null ? 
-                    entry.getAttributeValue("uid") : entry.getAttributeValue("cn"));
-                user.setEmail(entry.getAttributeValue("mail"));
-                user.setDistinguishedName(entry.getDN());
-                user.setDepartment(entry.getAttributeValue("departmentNumber"));
-                user.setTitle(entry.getAttributeValue("title"));
-                user.setManager(entry.getAttributeValue("manager"));
-                
-                // Use entryUUID or cn as unique identifier
-                String objectGuid = entry.getAttributeValue("entryUUID");
-                if (objectGuid == null) {
-                    objectGuid = entry.getAttributeValue("cn");
+            ASN1OctetString cookie = null;
+            do {
+                searchRequest.setControls(new SimplePagedResultsControl(PAGE_SIZE, cookie));
+                SearchResult searchResult = connection.search(searchRequest);
+
+                // Convert LDAP entries to ADUser objects
+                for (SearchResultEntry entry : searchResult.getSearchEntries()) {
+                    ADUser user = mapping.toADUser(entry);
+                    consumer.accept(user);
+                    entryCount++;
+                    logger.debug("Processed user: {}", user);
                 }
-                user.setObjectGuid(objectGuid);
-                
-                users.add(user);
-                logger.debug("Processed user: {}", user);
-            }
+
+                cookie = null;
+                SimplePagedResultsControl pageControl = SimplePagedResultsControl.get(searchResult);
+                if (pageControl != null && pageControl.moreResultsToReturn()) {
+                    cookie = pageControl.getCookie();
+                }
+            } while (cookie != null);
         } catch (LDAPSearchException e) {
             logger.error("LDAP search failed: {}", e.getMessage());
             throw new LDAPException(e.getResultCode(), 
                 "Failed to search LDAP: " + e.getMessage(), e);
         }
 
-        return users;
+        logger.info("Found {} LDAP entries", entryCount);
+    }
+
+    public List<ADGroup> fetchGroups() throws LDAPException {
+        List<ADGroup> groups = new ArrayList<>();
+
+        if (connection == null || !connection.isConnected()) {
+            throw new LDAPException(ResultCode.CONNECT_ERROR, 
+                "Not connected to LDAP");
+        }
+
+        // Search for groups (X.500/OpenLDAP object classes; AD uses objectClass=group)
+        String searchFilter = "(|(objectClass=groupOfNames)(objectClass=groupOfUniqueNames))";
+        SearchRequest searchRequest = new SearchRequest(
+            baseDN,
+            SearchScope.SUB,
+            searchFilter,
+            "cn", "description", "entryUUID", "member", "uniqueMember"
+        );
+
+        logger.info("Searching LDAP with filter: {}", searchFilter);
+
+        try {
+            ASN1OctetString cookie = null;
+            do {
+                searchRequest.setControls(new SimplePagedResultsControl(PAGE_SIZE, cookie));
+                SearchResult searchResult = connection.search(searchRequest);
+
+                for (SearchResultEntry entry : searchResult.getSearchEntries()) {
+                    ADGroup group = new ADGroup();
+
+                    group.setName(entry.getAttributeValue("cn"));
+                    group.setDescription(entry.getAttributeValue("description"));
+                    group.setDistinguishedName(entry.getDN());
+
+                    // Use entryUUID or cn as unique identifier
+                    String objectGuid = entry.getAttributeValue("entryUUID");
+                    if (objectGuid == null) {
+                        objectGuid = entry.getAttributeValue("cn");
+                    }
+                    group.setObjectGuid(objectGuid);
+
+                    for (String memberAttribute : MEMBER_ATTRIBUTES) {
+                        readMembers(entry, memberAttribute, group.getMemberDNs());
+                    }
+
+                    groups.add(group);
+                    logger.debug("Processed group: {}", group);
+                }
+
+                cookie = null;
+                SimplePagedResultsControl pageControl = SimplePagedResultsControl.get(searchResult);
+                if (pageControl != null && pageControl.moreResultsToReturn()) {
+                    cookie = pageControl.getCookie();
+                }
+            } while (cookie != null);
+        } catch (LDAPSearchException e) {
+            logger.error("LDAP group search failed: {}", e.getMessage());
+            throw new LDAPException(e.getResultCode(), 
+                "Failed to search LDAP groups: " + e.getMessage(), e);
+        }
+
+        logger.info("Found {} LDAP group entries", groups.size());
+
+        return groups;
+    }
+
+    /**
+     * Collect all values of a member attribute. Directories that cap
+     * multi-valued attributes (AD returns "member;range=0-1499") are
+     * read in follow-up base searches until the final "-*" range. A range
+     * that stops before "-*" throws, so a truncated group is never synced.
+     */
+    private void readMembers(SearchResultEntry entry, String memberAttribute,
+                             List<String> memberDNs) throws LDAPException {
+        Attribute ranged = null;
+        for (Attribute attribute : entry.getAttributes()) {
+            if (attribute.getBaseName().equalsIgnoreCase(memberAttribute)) {
+                if (rangeOption(attribute) == null) {
+                    addMembers(attribute, memberDNs);
+                    return;
+                }
+                ranged = attribute;
+            }
+        }
+
+        while (ranged != null) {
+            addMembers(ranged, memberDNs);
+
+            String range = rangeOption(ranged);
+            String rangeEnd = range.substring(range.indexOf('-') + 1);
+            if ("*".equals(rangeEnd)) {
+                return;
+            }
+
+            int next = Integer.parseInt(rangeEnd) + 1;
+            String requested = memberAttribute + ";" + RANGE_OPTION + next + "-*";
+            SearchResultEntry page = connection.getEntry(entry.getDN(), requested);
+
+            ranged = null;
+            if (page != null) {
+                for (Attribute attribute : page.getAttributes()) {
+                    if (attribute.getBaseName().equalsIgnoreCase(memberAttribute)
+                            && rangeOption(attribute) != null) {
+                        ranged = attribute;
+                    }
+                }
+            }
+            if (ranged == null) {
+                // A partial member list would read as mass removals; fail instead
+                throw new LDAPException(ResultCode.DECODING_ERROR,
+                    "Range retrieval of " + memberAttribute + " on " + entry.getDN() 
+                    + " ended early at " + next);
+            }
+        }
+    }
+
+    private static String rangeOption(Attribute attribute) {
+        for (String option : attribute.getOptions()) {
+            if (option.toLowerCase(Locale.ROOT).startsWith(RANGE_OPTION)) {
+                return option.substring(RANGE_OPTION.length());
+            }
+        }
+        return null;
+    }
+
+    private static void addMembers(Attribute attribute, List<String> memberDNs) {
+        for (String value : attribute.getValues()) {
+            // uniqueMember values may carry an optional "#'...'B" uid suffix
+            int uidSeparator = value.lastIndexOf("#'");
+            if (uidSeparator > 0 && value.endsWith("'B")) {
+                value = value.substring(0, uidSeparator);
+            }
+            memberDNs.add(value);
+        }
+    }
+
+    /**
+     * Normalize a DN so that member references compare equal to entry DNs
+     * regardless of case or spacing differences.
+     */
+    public static String normalizeDN(String dn) {
+        try {
+            return new DN(dn).toNormalizedString();
+        } catch (LDAPException e) {
+            return dn.trim().toLowerCase(Locale.ROOT);
+        }
     }
 
     public void disconnect() {
@@ -0,0 +1,27 @@
+// src/main/java/com/demo/adsync/service/SalesforceApiException.java
+package com.demo.adsync.service;
+
+/**
+ * A Salesforce REST call that returned an error response.
+ */
+public class SalesforceApiException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public SalesforceApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() { return status; }
+
+    /**
+     * True for failures worth retrying: server errors and API rate limits.
+     * Validation errors and missing objects fail the same way every time.
+     */
+    public boolean isTransient() {
+        return status >= 500 || status == 429
+            || (getMessage() != null && getMessage().contains("REQUEST_LIMIT_EXCEEDED"));
+    }
+}
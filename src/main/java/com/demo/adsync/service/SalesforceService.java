@@ -1,7 +1,10 @@
 // src/main/java/com/demo/adsync/service/SalesforceService.java
 package com.demo.adsync.service;
 
+import com.demo.adsync.mapping.AttributeMapping;
+import com.demo.adsync.model.ADGroup;
 import com.demo.adsync.model.ADUser;
+import kong.unirest.HttpRequestWithBody;
 import kong.unirest.HttpResponse;
 import kong.unirest.Unirest;
 import org.slf4j.Logger;
@@ -9,8 +12,15 @@ import org.slf4j.LoggerFactory;
 import org.json.JSONObject;
 import org.json.JSONArray;
 
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class SalesforceService {
     private static final Logger logger = LoggerFactory.getLogger(SalesforceService.class);
@@ -21,15 +31,25 @@ public class SalesforceService {
     private String loginUrl;
     private String accessToken;
     private String instanceUrl;
+    private AttributeMapping mapping;
     private static final String API_VERSION = "/services/data/v59.0";
+    // sObject Collections accept at most 200 records per request
+    private static final int COLLECTION_BATCH_SIZE = 200;
 
     public SalesforceService(String username, String password, 
                             String securityToken, String loginUrl) {
+        this(username, password, securityToken, loginUrl, AttributeMapping.defaults());
+    }
+
+    public SalesforceService(String username, String password, 
+                            String securityToken, String loginUrl,
+                            AttributeMapping mapping) {
         this.username = username;
         this.password = password;
         this.securityToken = securityToken;
         this.loginUrl = (loginUrl != null && !loginUrl.isEmpty()) ? 
             loginUrl : "https://login.salesforce.com";
+        this.mapping = mapping;
     }
 
     public void connect() {
@@ -134,7 +154,7 @@ public class SalesforceService {
         logger.info("Upsert complete. Success: {}, Failed: {}", successCount, failCount);
     }
 
-    private void upsertUser(ADUser user) throws Exception {
+    public void upsertUser(ADUser user) throws Exception {
         // First, check if user exists
         String query = String.format(
             "SELECT Id FROM AD_User__c WHERE AD_Object_GUID__c = '%s' LIMIT 1",
@@ -162,58 +182,23 @@ public class SalesforceService {
                 queryResponse.getBody().contains("sObject type 'AD_User__c' is not supported")) {
                 logger.error("AD_User__c object does not exist in Salesforce. Please create it first.");
                 logger.error("Instructions: Go to Setup → Object Manager → Create → Custom Object");
-                throw new Exception("AD_User__c custom object not found in Salesforce");
+                logger.error("AD_Object_GUID__c must be a Text field marked External ID and Unique");
+                throw new SalesforceApiException(queryResponse.getStatus(), 
+                    "AD_User__c custom object not found in Salesforce");
             }
-            throw new Exception("Query failed: " + queryResponse.getBody());
+            throw new SalesforceApiException(queryResponse.getStatus(), 
+                "Query failed: " + queryResponse.getBody());
         }
         
         JSONObject queryResult = new JSONObject(queryResponse.getBody());
         
         // Prepare record data
-        JSONObject record = new JSONObject();
-        
-        // IMPORTANT: Set the Name field (standard field) for better display
-        // This will show the username instead of auto-number in list views
-        String displayName = user.getUsername();
-        if (displayName == null || displayName.isEmpty()) {
-            displayName = user.getEmail();
-            if (displayName == null || displayName.isEmpty()) {
-                displayName = user.getObjectGuid();
-            }
-        }
-        record.put("Name", displayName);
-        
-        // Set all custom fields
-        record.put("AD_Username__c", user.getUsername() != null ? user.getUsername() : "");
-        record.put("AD_Email__c", user.getEmail() != null ? user.getEmail() : "");
-        record.put("AD_Distinguished_Name__c", 
-            user.getDistinguishedName() != null ? user.getDistinguishedName() : "");
-        record.put("AD_Department__c", 
-            user.getDepartment() != null ? user.getDepartment() : "");
-        
-        // Handle manager field - truncate if too long
-        if (user.getManager() != null) {
-            String manager = user.getManager();
-            if (manager.length() > 255) {
-                manager = manager.substring(0, 255);
-            }
-            record.put("AD_Manager__c", manager);
-        } else {
-            record.put("AD_Manager__c", "");
-        }
-        
-        record.put("AD_Object_GUID__c", user.getObjectGuid());
-        
-        // Add title if you have that field in Salesforce
-        if (user.getTitle() != null && !user.getTitle().isEmpty()) {
-            // Uncomment if you have AD_Title__c field in Salesforce
-            // record.put("AD_Title__c", user.getTitle());
-        }
+        JSONObject record = buildRecord(user);
+        String displayName = record.optString("Name", user.getObjectGuid());
         
         // Add formatted date
         if (user.getLastSynced() != null) {
-            DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-            record.put("Last_Synced__c", user.getLastSynced().format(formatter) + "Z");
+            record.put("Last_Synced__c", formatTimestamp(user.getLastSynced()));
         }
         
         if (queryResult.getInt("totalSize") > 0) {
@@ -232,7 +217,8 @@ public class SalesforceService {
                 logger.info("Updated user: {} (ID: {})", displayName, recordId);
             } else {
                 logger.error("Update failed for user {}: {}", displayName, updateResponse.getBody());
-                throw new Exception("Update failed: " + updateResponse.getBody());
+                throw new SalesforceApiException(updateResponse.getStatus(), 
+                    "Update failed: " + updateResponse.getBody());
             }
         } else {
             // Create new record
@@ -249,9 +235,255 @@ public class SalesforceService {
                 logger.info("Created user: {} (ID: {})", displayName, newId);
             } else {
                 logger.error("Create failed for user {}: {}", displayName, createResponse.getBody());
-                throw new Exception("Create failed: " + createResponse.getBody());
+                throw new SalesforceApiException(createResponse.getStatus(), 
+                    "Create failed: " + createResponse.getBody());
+            }
+        }
+    }
+
+    /**
+     * Map an AD user to its AD_User__c field values (without Last_Synced__c)
+     */
+    public JSONObject buildRecord(ADUser user) {
+        return mapping.toRecord(user);
+    }
+
+    public AttributeMapping getMapping() { return mapping; }
+
+    public String getInstanceUrl() { return instanceUrl; }
+
+    public static String formatTimestamp(LocalDateTime timestamp) {
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        return timestamp.format(formatter) + "Z";
+    }
+
+    /**
+     * Stream every AD_User__c record (Id plus mapped fields) with paged queries
+     */
+    public void streamUserRecords(Consumer<JSONObject> consumer) throws Exception {
+        queryAll("SELECT Id, " + String.join(", ", mapping.getFieldNames()) + " FROM AD_User__c", 
+            consumer);
+    }
+
+    /**
+     * Upsert AD_User__c records by AD_Object_GUID__c in sObject Collection
+     * batches, so replaying the same records never creates duplicates
+     *
+     * @return success and failure counts
+     */
+    public int[] upsertUserRecords(JSONArray records) {
+        return writeCollection(withType(records, "AD_User__c"), () -> Unirest.patch(
+            instanceUrl + API_VERSION + "/composite/sobjects/AD_User__c/AD_Object_GUID__c"));
+    }
+
+    /**
+     * Update AD_User__c records (each carrying its Id) in sObject Collection batches
+     *
+     * @return success and failure counts
+     */
+    public int[] updateUserRecords(JSONArray records) {
+        return writeCollection(withType(records, "AD_User__c"), () -> Unirest.patch(
+            instanceUrl + API_VERSION + "/composite/sobjects"));
+    }
+
+    private static JSONArray withType(JSONArray records, String type) {
+        for (int i = 0; i < records.length(); i++) {
+            records.getJSONObject(i).put("attributes", new JSONObject().put("type", type));
+        }
+        return records;
+    }
+
+    public void upsertGroups(List<ADGroup> groups) {
+        if (groups == null || groups.isEmpty()) {
+            logger.warn("No groups to sync");
+            return;
+        }
+
+        logger.info("Upserting {} groups to Salesforce", groups.size());
+
+        JSONArray records = new JSONArray();
+        for (ADGroup group : groups) {
+            JSONObject record = new JSONObject();
+            record.put("attributes", new JSONObject().put("type", "AD_Group__c"));
+            record.put("Name", group.getName() != null ? group.getName() : group.getObjectGuid());
+            record.put("AD_Group_GUID__c", group.getObjectGuid());
+            record.put("AD_Distinguished_Name__c", 
+                group.getDistinguishedName() != null ? group.getDistinguishedName() : "");
+            record.put("AD_Description__c", 
+                group.getDescription() != null ? group.getDescription() : "");
+            if (group.getLastSynced() != null) {
+                record.put("Last_Synced__c", formatTimestamp(group.getLastSynced()));
+            }
+            records.put(record);
+        }
+
+        int[] counts = writeCollection(records, () -> Unirest.patch(
+            instanceUrl + API_VERSION + "/composite/sobjects/AD_Group__c/AD_Group_GUID__c"));
+
+        logger.info("Group upsert complete. Success: {}, Failed: {}", counts[0], counts[1]);
+    }
+
+    /**
+     * Mirror effective group memberships into AD_Group_Member__c junction records.
+     * Existing junctions are read with one paged query and only the set difference
+     * is written, in sObject Collection batches rather than one call per membership.
+     *
+     * @param memberships user GUIDs keyed by group GUID
+     */
+    public void syncGroupMemberships(Map<String, Set<String>> memberships) throws Exception {
+        Map<String, String> existing = new HashMap<>();
+        List<String> toDelete = new ArrayList<>();
+        int[] keyless = new int[1];
+        queryAll("SELECT Id, AD_Membership_Key__c FROM AD_Group_Member__c", record -> {
+            String key = record.optString("AD_Membership_Key__c", null);
+            if (key == null) {
+                // Junctions without a key were not created by this sync; leave them alone
+                keyless[0]++;
+                return;
+            }
+            String duplicate = existing.put(key, record.getString("Id"));
+            if (duplicate != null) {
+                toDelete.add(duplicate);
+            }
+        });
+
+        logger.info("Found {} existing group memberships in Salesforce", existing.size());
+        if (keyless[0] > 0) {
+            logger.warn("Skipped {} AD_Group_Member__c records without AD_Membership_Key__c", 
+                keyless[0]);
+        }
+        if (!toDelete.isEmpty()) {
+            logger.warn("Removing {} duplicate group memberships", toDelete.size());
+        }
+
+        JSONArray toCreate = new JSONArray();
+        for (Map.Entry<String, Set<String>> group : memberships.entrySet()) {
+            for (String userGuid : group.getValue()) {
+                String key = group.getKey() + ":" + userGuid;
+                // Whatever is left in existing afterwards is no longer a member
+                if (existing.remove(key) == null) {
+                    JSONObject record = new JSONObject();
+                    record.put("attributes", new JSONObject().put("type", "AD_Group_Member__c"));
+                    record.put("AD_Membership_Key__c", key);
+                    record.put("AD_Group_GUID__c", group.getKey());
+                    record.put("AD_User_GUID__c", userGuid);
+                    toCreate.put(record);
+                }
+            }
+        }
+        toDelete.addAll(existing.values());
+
+        logger.info("Membership changes: {} to add, {} to remove", 
+            toCreate.length(), toDelete.size());
+
+        int[] created = writeCollection(toCreate, () -> Unirest.post(
+            instanceUrl + API_VERSION + "/composite/sobjects"));
+
+        int deleted = 0;
+        int deleteFailed = 0;
+        for (int start = 0; start < toDelete.size(); start += COLLECTION_BATCH_SIZE) {
+            List<String> ids = toDelete.subList(start, 
+                Math.min(start + COLLECTION_BATCH_SIZE, toDelete.size()));
+            HttpResponse<String> response = Unirest.delete(
+                instanceUrl + API_VERSION + "/composite/sobjects")
+                .queryString("ids", String.join(",", ids))
+                .queryString("allOrNone", "false")
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Accept", "application/json")
+                .asString();
+            int[] counts = collectionResults(response, ids.size());
+            deleted += counts[0];
+            deleteFailed += counts[1];
+        }
+
+        logger.info("Membership sync complete. Added: {}, Removed: {}, Failed: {}", 
+            created[0], deleted, created[1] + deleteFailed);
+    }
+
+    /**
+     * Run a SOQL query and hand every record to the consumer,
+     * following nextRecordsUrl until the result set is exhausted.
+     */
+    private void queryAll(String query, Consumer<JSONObject> consumer) throws Exception {
+        HttpResponse<String> response = Unirest.get(instanceUrl + API_VERSION + "/query")
+            .queryString("q", query)
+            .header("Authorization", "Bearer " + accessToken)
+            .header("Accept", "application/json")
+            .header("Sforce-Query-Options", "batchSize=2000")
+            .asString();
+
+        while (true) {
+            if (response.getStatus() != 200) {
+                throw new SalesforceApiException(response.getStatus(), 
+                    "Query failed: " + response.getBody());
+            }
+
+            JSONObject result = new JSONObject(response.getBody());
+            JSONArray records = result.getJSONArray("records");
+            for (int i = 0; i < records.length(); i++) {
+                consumer.accept(records.getJSONObject(i));
+            }
+
+            if (result.getBoolean("done")) {
+                return;
+            }
+            response = Unirest.get(instanceUrl + result.getString("nextRecordsUrl"))
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Accept", "application/json")
+                .asString();
+        }
+    }
+
+    /**
+     * Send records through the sObject Collections API in batches of 200.
+     *
+     * @return success and failure counts
+     */
+    private int[] writeCollection(JSONArray records, 
+                                  Supplier<HttpRequestWithBody> request) {
+        int[] totals = new int[2];
+        for (int start = 0; start < records.length(); start += COLLECTION_BATCH_SIZE) {
+            JSONArray batch = new JSONArray();
+            for (int i = start; i < Math.min(start + COLLECTION_BATCH_SIZE, records.length()); i++) {
+                batch.put(records.get(i));
+            }
+
+            JSONObject body = new JSONObject();
+            body.put("allOrNone", false);
+            body.put("records", batch);
+
+            HttpResponse<String> response = request.get()
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Content-Type", "application/json")
+                .body(body.toString())
+                .asString();
+
+            int[] counts = collectionResults(response, batch.length());
+            totals[0] += counts[0];
+            totals[1] += counts[1];
+        }
+        return totals;
+    }
+
+    private int[] collectionResults(HttpResponse<String> response, int batchSize) {
+        if (response.getStatus() != 200) {
+            logger.error("Collection request failed: {} - {}", 
+                response.getStatus(), response.getBody());
+            return new int[] { 0, batchSize };
+        }
+
+        int[] counts = new int[2];
+        JSONArray results = new JSONArray(response.getBody());
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            if (result.getBoolean("success")) {
+                counts[0]++;
+            } else {
+                counts[1]++;
+                logger.error("Collection record failed: {}", result.optJSONArray("errors"));
             }
         }
+        return counts;
     }
 
     public void disconnect() {
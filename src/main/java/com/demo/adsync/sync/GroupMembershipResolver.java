@@ -0,0 +1,144 @@
+// src/main/java/com/demo/adsync/sync/GroupMembershipResolver.java
+package com.demo.adsync.sync;
+
+import com.demo.adsync.model.ADGroup;
+import com.demo.adsync.service.LDAPService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Expands nested groups into effective user memberships.
+ *
+ * Groups and users form a DN graph; each group is resolved once and the
+ * result memoized. Cycles (A contains B contains A) are detected as strongly
+ * connected components, whose groups all share the same effective members.
+ */
+public class GroupMembershipResolver {
+    private static final Logger logger = LoggerFactory.getLogger(GroupMembershipResolver.class);
+
+    private final Map<String, ADGroup> groupsByDn = new HashMap<>();
+
+    // Direct edges of the DN graph, built once per group
+    private final Map<String, List<String>> childGroupsByDn = new HashMap<>();
+    private final Map<String, Set<String>> directUsersByDn = new HashMap<>();
+
+    // Memoized effective user GUIDs, keyed by normalized group DN
+    private final Map<String, Set<String>> resolved = new HashMap<>();
+
+    // Tarjan traversal state
+    private final Map<String, Integer> index = new HashMap<>();
+    private final Map<String, Integer> lowLink = new HashMap<>();
+    private final Deque<String> stack = new ArrayDeque<>();
+    private final Set<String> onStack = new HashSet<>();
+    private int nextIndex;
+
+    /**
+     * @param groups all groups read from LDAP
+     * @param userGuidsByDn user GUIDs keyed by normalized user DN
+     */
+    public GroupMembershipResolver(List<ADGroup> groups,
+                                   Map<String, String> userGuidsByDn) {
+        for (ADGroup group : groups) {
+            groupsByDn.put(LDAPService.normalizeDN(group.getDistinguishedName()), group);
+        }
+
+        for (Map.Entry<String, ADGroup> entry : groupsByDn.entrySet()) {
+            List<String> children = new ArrayList<>();
+            Set<String> users = new HashSet<>();
+            for (String memberDn : entry.getValue().getMemberDNs()) {
+                String normalized = LDAPService.normalizeDN(memberDn);
+                if (groupsByDn.containsKey(normalized)) {
+                    children.add(normalized);
+                } else {
+                    String userGuid = userGuidsByDn.get(normalized);
+                    if (userGuid != null) {
+                        users.add(userGuid);
+                    }
+                }
+            }
+            childGroupsByDn.put(entry.getKey(), children);
+            directUsersByDn.put(entry.getKey(), users);
+        }
+    }
+
+    /**
+     * Resolve every group to its effective (transitive) user GUIDs.
+     *
+     * @return user GUIDs keyed by group GUID
+     */
+    public Map<String, Set<String>> resolveAll() {
+        Map<String, Set<String>> memberships = new HashMap<>();
+        for (Map.Entry<String, ADGroup> entry : groupsByDn.entrySet()) {
+            memberships.put(entry.getValue().getObjectGuid(), resolve(entry.getKey()));
+        }
+        return memberships;
+    }
+
+    private Set<String> resolve(String groupDn) {
+        if (!resolved.containsKey(groupDn)) {
+            strongConnect(groupDn);
+        }
+        return resolved.get(groupDn);
+    }
+
+    private void strongConnect(String groupDn) {
+        index.put(groupDn, nextIndex);
+        lowLink.put(groupDn, nextIndex);
+        nextIndex++;
+        stack.push(groupDn);
+        onStack.add(groupDn);
+
+        for (String child : childGroupsByDn.get(groupDn)) {
+            if (!index.containsKey(child)) {
+                strongConnect(child);
+                lowLink.put(groupDn, Math.min(lowLink.get(groupDn), lowLink.get(child)));
+            } else if (onStack.contains(child)) {
+                lowLink.put(groupDn, Math.min(lowLink.get(groupDn), index.get(child)));
+            }
+        }
+
+        if (!lowLink.get(groupDn).equals(index.get(groupDn))) {
+            return;
+        }
+
+        // groupDn is the root of a component; pop it and resolve all of it at once
+        List<String> component = new ArrayList<>();
+        String member;
+        do {
+            member = stack.pop();
+            onStack.remove(member);
+            component.add(member);
+        } while (!member.equals(groupDn));
+
+        Set<String> users = new HashSet<>();
+        for (String dn : component) {
+            users.addAll(directUsersByDn.get(dn));
+            for (String child : childGroupsByDn.get(dn)) {
+                // Children outside the component were resolved before it was popped
+                Set<String> childUsers = resolved.get(child);
+                if (childUsers != null) {
+                    users.addAll(childUsers);
+                }
+            }
+        }
+
+        if (component.size() > 1 || childGroupsByDn.get(groupDn).contains(groupDn)) {
+            logger.warn("Nested group cycle detected between {}", component);
+        }
+
+        Set<String> effective = Collections.unmodifiableSet(users);
+        for (String dn : component) {
+            resolved.put(dn, effective);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+// src/main/java/com/demo/adsync/sync/OrgTarget.java
+package com.demo.adsync.sync;
+
+import com.demo.adsync.model.ADUser;
+import com.demo.adsync.service.SalesforceApiException;
+import com.demo.adsync.service.SalesforceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Salesforce org fed by the orchestrator. Each target owns its worker
+ * pool, retry policy and counters, so a slow or failing org does not
+ * consume another org's capacity or skew its results.
+ */
+public class OrgTarget {
+    private static final Logger logger = LoggerFactory.getLogger(OrgTarget.class);
+    private static final long RETRY_BACKOFF_MS = 1000;
+
+    private final String name;
+    private final SalesforceService salesforceService;
+    private final int threads;
+    private final int maxRetries;
+
+    private final AtomicInteger successCount = new AtomicInteger();
+    private final AtomicInteger failCount = new AtomicInteger();
+    private final AtomicInteger retryCount = new AtomicInteger();
+    private volatile boolean failed;
+    private ExecutorService executor;
+
+    public OrgTarget(String name, SalesforceService salesforceService,
+                     int threads, int maxRetries) {
+        this.name = name;
+        this.salesforceService = salesforceService;
+        this.threads = Math.max(1, threads);
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    public String getName() { return name; }
+
+    public SalesforceService getSalesforceService() { return salesforceService; }
+
+    public int getSuccessCount() { return successCount.get(); }
+
+    public int getFailCount() { return failCount.get(); }
+
+    public int getRetryCount() { return retryCount.get(); }
+
+    /**
+     * True when the org could not be synced as a whole (login or group sync failure)
+     */
+    public boolean isFailed() { return failed; }
+
+    void markFailed() { failed = true; }
+
+    /**
+     * Reset counters and start the worker pool for a sync run
+     */
+    void start() {
+        successCount.set(0);
+        failCount.set(0);
+        retryCount.set(0);
+        failed = false;
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "sync-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    CompletableFuture<Void> submitBatch(List<ADUser> batch) {
+        return CompletableFuture.runAsync(() -> {
+            for (ADUser user : batch) {
+                upsertWithRetry(user);
+            }
+        }, executor);
+    }
+
+    /**
+     * Run a task on this org's pool once the given work has finished
+     */
+    CompletableFuture<Void> after(CompletableFuture<Void> previous, Runnable task) {
+        return previous.exceptionally(e -> null).thenRunAsync(task, executor);
+    }
+
+    private void upsertWithRetry(ADUser user) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                salesforceService.upsertUser(user);
+                successCount.incrementAndGet();
+                return;
+            } catch (Exception e) {
+                if (attempt >= maxRetries || !isTransient(e)) {
+                    failCount.incrementAndGet();
+                    logger.error("[{}] Failed to upsert user: {}", name, user.getUsername(), e);
+                    return;
+                }
+                retryCount.incrementAndGet();
+                logger.warn("[{}] Retrying user {} after: {}", name, user.getUsername(), e.getMessage());
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS * (attempt + 1));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    failCount.incrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Server errors, rate limits and I/O timeouts may succeed on retry;
+     * anything else (validation errors, missing objects) will not.
+     */
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof SalesforceApiException) {
+            return ((SalesforceApiException) e).isTransient();
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InterruptedIOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrgTarget[name=%s, success=%d, failed=%d, retries=%d]",
+            name, successCount.get(), failCount.get(), retryCount.get());
+    }
+}
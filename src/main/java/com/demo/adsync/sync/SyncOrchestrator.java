@@ -1,6 +1,7 @@
 // src/main/java/com/demo/adsync/sync/SyncOrchestrator.java
 package com.demo.adsync.sync;
 
+import com.demo.adsync.model.ADGroup;
 import com.demo.adsync.model.ADUser;
 import com.demo.adsync.service.LDAPService;
 import com.demo.adsync.service.SalesforceService;
@@ -8,43 +9,123 @@ import com.unboundid.ldap.sdk.LDAPException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class SyncOrchestrator {
     private static final Logger logger = LoggerFactory.getLogger(SyncOrchestrator.class);
-    
+    private static final int BATCH_SIZE = 200;
+
     private LDAPService ldapService;
-    private SalesforceService salesforceService;
+    private List<OrgTarget> targets;
+    private boolean syncGroups;
 
-    public SyncOrchestrator(LDAPService ldapService, 
+    public SyncOrchestrator(LDAPService ldapService,
                            SalesforceService salesforceService) {
+        this(ldapService, salesforceService, false);
+    }
+
+    public SyncOrchestrator(LDAPService ldapService,
+                           SalesforceService salesforceService,
+                           boolean syncGroups) {
+        this(ldapService,
+            Collections.singletonList(new OrgTarget("default", salesforceService, 1, 0)),
+            syncGroups);
+    }
+
+    /**
+     * Sync one directory read into several Salesforce orgs concurrently
+     */
+    public SyncOrchestrator(LDAPService ldapService,
+                           List<OrgTarget> targets,
+                           boolean syncGroups) {
         this.ldapService = ldapService;
-        this.salesforceService = salesforceService;
+        this.targets = targets;
+        this.syncGroups = syncGroups;
     }
 
+    public List<OrgTarget> getTargets() { return targets; }
+
     public void performSync() {
-        logger.info("=== Starting AD to Salesforce Sync ===");
-        
+        logger.info("=== Starting AD to Salesforce Sync ({} org(s)) ===", targets.size());
+
         try {
             // Connect to LDAP
             ldapService.connect();
-            
-            // Connect to Salesforce
-            salesforceService.connect();
-            
-            // Fetch users from LDAP
+
+            // Connect to every Salesforce org; one failed login does not stop the others
+            List<OrgTarget> connected = new ArrayList<>();
+            for (OrgTarget target : targets) {
+                target.start();
+                try {
+                    target.getSalesforceService().connect();
+                    connected.add(target);
+                } catch (Exception e) {
+                    target.markFailed();
+                    logger.error("[{}] Could not connect to Salesforce: {}",
+                        target.getName(), e.getMessage());
+                }
+            }
+
+            // Fetch users from LDAP once for all orgs
             List<ADUser> users = ldapService.fetchUsers();
             logger.info("Fetched {} users from LDAP", users.size());
-            
-            // Sync to Salesforce
-            if (!users.isEmpty()) {
-                salesforceService.upsertUsers(users);
-            } else {
+
+            if (users.isEmpty()) {
                 logger.warn("No users found in LDAP to sync");
             }
-            
-            logger.info("=== Sync completed successfully ===");
-            
+
+            // Read and resolve groups once, before any org starts writing
+            List<ADGroup> groups = null;
+            Map<String, Set<String>> memberships = null;
+            if (syncGroups) {
+                try {
+                    groups = ldapService.fetchGroups();
+                    logger.info("Fetched {} groups from LDAP", groups.size());
+                    memberships = resolveMemberships(users, groups);
+                } catch (LDAPException e) {
+                    // Users still sync; group memberships are left as they are
+                    logger.error("LDAP group read failed, skipping group sync: {}", e.getMessage(), e);
+                    for (OrgTarget target : connected) {
+                        target.markFailed();
+                    }
+                }
+            }
+
+            // Each org runs its user batches and then its group sync on its own
+            // pool, so a slow org never delays another org's work
+            List<CompletableFuture<Void>> pending = new ArrayList<>();
+            for (OrgTarget target : connected) {
+                List<CompletableFuture<Void>> batches = new ArrayList<>();
+                for (int start = 0; start < users.size(); start += BATCH_SIZE) {
+                    batches.add(target.submitBatch(users.subList(start,
+                        Math.min(start + BATCH_SIZE, users.size()))));
+                }
+                CompletableFuture<Void> orgWork =
+                    CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0]));
+
+                if (memberships != null) {
+                    List<ADGroup> orgGroups = groups;
+                    Map<String, Set<String>> orgMemberships = memberships;
+                    orgWork = target.after(orgWork,
+                        () -> syncGroupMemberships(target, orgGroups, orgMemberships));
+                }
+                pending.add(orgWork);
+            }
+            awaitAll(pending);
+
+            for (OrgTarget target : targets) {
+                logger.info("[{}] Upsert complete. Success: {}, Failed: {}, Retries: {}",
+                    target.getName(), target.getSuccessCount(),
+                    target.getFailCount(), target.getRetryCount());
+            }
+
         } catch (LDAPException e) {
             logger.error("LDAP error during sync: {}", e.getMessage(), e);
             throw new RuntimeException("Sync failed due to LDAP error", e);
@@ -58,12 +139,63 @@ public class SyncOrchestrator {
             } catch (Exception e) {
                 logger.warn("Error disconnecting from LDAP: {}", e.getMessage());
             }
-            
+
+            for (OrgTarget target : targets) {
+                target.shutdown();
+                try {
+                    target.getSalesforceService().disconnect();
+                } catch (Exception e) {
+                    logger.warn("[{}] Error disconnecting from Salesforce: {}",
+                        target.getName(), e.getMessage());
+                }
+            }
+        }
+
+        List<String> failedOrgs = new ArrayList<>();
+        for (OrgTarget target : targets) {
+            if (target.isFailed()) {
+                failedOrgs.add(target.getName());
+            }
+        }
+        if (!failedOrgs.isEmpty()) {
+            throw new RuntimeException("Sync failed for org(s): " + failedOrgs);
+        }
+
+        logger.info("=== Sync completed successfully ===");
+    }
+
+    private Map<String, Set<String>> resolveMemberships(List<ADUser> users,
+                                                        List<ADGroup> groups) {
+        // Members are referenced by DN; Salesforce junctions are keyed by GUID
+        Map<String, String> userGuidsByDn = new HashMap<>();
+        for (ADUser user : users) {
+            userGuidsByDn.put(LDAPService.normalizeDN(user.getDistinguishedName()),
+                user.getObjectGuid());
+        }
+
+        return new GroupMembershipResolver(groups, userGuidsByDn).resolveAll();
+    }
+
+    private void syncGroupMemberships(OrgTarget target, List<ADGroup> groups,
+                                      Map<String, Set<String>> memberships) {
+        try {
+            target.getSalesforceService().upsertGroups(groups);
+            target.getSalesforceService().syncGroupMemberships(memberships);
+        } catch (Exception e) {
+            target.markFailed();
+            logger.error("[{}] Group membership sync failed: {}",
+                target.getName(), e.getMessage(), e);
+        }
+    }
+
+    private void awaitAll(List<CompletableFuture<Void>> pending) throws InterruptedException {
+        for (CompletableFuture<Void> future : pending) {
             try {
-                salesforceService.disconnect();
-            } catch (Exception e) {
-                logger.warn("Error disconnecting from Salesforce: {}", e.getMessage());
+                future.get();
+            } catch (ExecutionException e) {
+                // Tasks account for their own failures; this is unexpected
+                logger.error("Sync task failed: {}", e.getCause().getMessage(), e.getCause());
             }
         }
     }
-}
\ No newline at end of file
+}
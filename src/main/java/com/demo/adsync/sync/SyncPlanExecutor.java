@@ -0,0 +1,158 @@
+// src/main/java/com/demo/adsync/sync/SyncPlanExecutor.java
+package com.demo.adsync.sync;
+
+import com.demo.adsync.service.SalesforceService;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Replays a saved JSONL sync plan. Creates and updates are applied exactly
+ * as recorded without re-reading LDAP or Salesforce: creates are upserted on
+ * AD_Object_GUID__c and updates target the planned record Id. UNCHANGED,
+ * ORPHAN and UNKEYED entries are informational.
+ *
+ * The whole file is validated first, including that its header names this
+ * org, so a malformed or foreign plan is rejected before anything is written.
+ */
+public class SyncPlanExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(SyncPlanExecutor.class);
+    private static final int BATCH_SIZE = 200;
+
+    private String orgName;
+    private SalesforceService salesforceService;
+
+    public SyncPlanExecutor(String orgName, SalesforceService salesforceService) {
+        this.orgName = orgName;
+        this.salesforceService = salesforceService;
+    }
+
+    /**
+     * Validate and apply the plan; Salesforce is expected to be connected.
+     *
+     * @return success and failure counts
+     */
+    public int[] execute(Path plan) throws IOException {
+        // First pass: validate every line without writing anything
+        try (BufferedReader reader = Files.newBufferedReader(plan, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.trim().isEmpty()) {
+                    parse(line, lineNumber);
+                }
+            }
+            if (lineNumber == 0) {
+                throw new IOException("Plan " + plan + " is empty");
+            }
+        }
+
+        // Second pass: apply
+        int[] totals = new int[2];
+        JSONArray creates = new JSONArray();
+        JSONArray updates = new JSONArray();
+
+        try (BufferedReader reader = Files.newBufferedReader(plan, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                JSONObject entry = parse(line, lineNumber);
+                String action = entry.getString("action");
+                if (SyncPlanWriter.CREATE.equals(action)) {
+                    // Creates are upserted on the GUID so a repeated apply is harmless
+                    JSONObject record = entry.getJSONObject("record");
+                    if (!record.has("AD_Object_GUID__c")) {
+                        record.put("AD_Object_GUID__c", entry.getString("guid"));
+                    }
+                    creates.put(record);
+                } else if (SyncPlanWriter.UPDATE.equals(action)) {
+                    JSONObject record = entry.getJSONObject("record");
+                    record.put("Id", entry.getString("id"));
+                    updates.put(record);
+                }
+
+                if (creates.length() == BATCH_SIZE) {
+                    add(totals, salesforceService.upsertUserRecords(creates));
+                    creates = new JSONArray();
+                }
+                if (updates.length() == BATCH_SIZE) {
+                    add(totals, salesforceService.updateUserRecords(updates));
+                    updates = new JSONArray();
+                }
+            }
+        }
+
+        if (creates.length() > 0) {
+            add(totals, salesforceService.upsertUserRecords(creates));
+        }
+        if (updates.length() > 0) {
+            add(totals, salesforceService.updateUserRecords(updates));
+        }
+
+        logger.info("Plan applied. Success: {}, Failed: {}", totals[0], totals[1]);
+        return totals;
+    }
+
+    private JSONObject parse(String line, int lineNumber) throws IOException {
+        JSONObject entry;
+        try {
+            entry = new JSONObject(line);
+        } catch (JSONException e) {
+            throw new IOException("Malformed plan entry on line " + lineNumber + ": " + e.getMessage(), e);
+        }
+
+        String action = entry.optString("action", "");
+        if (lineNumber == 1 || SyncPlanWriter.HEADER.equals(action)) {
+            if (lineNumber != 1 || !SyncPlanWriter.HEADER.equals(action)) {
+                throw new IOException("Plan must start with a single HEADER line");
+            }
+            checkTarget(entry.optJSONObject("record"));
+            return entry;
+        }
+
+        boolean valid;
+        if (SyncPlanWriter.CREATE.equals(action)) {
+            valid = entry.optJSONObject("record") != null && entry.has("guid");
+        } else if (SyncPlanWriter.UPDATE.equals(action)) {
+            valid = entry.optJSONObject("record") != null && entry.has("id");
+        } else {
+            valid = SyncPlanWriter.UNCHANGED.equals(action)
+                || SyncPlanWriter.ORPHAN.equals(action)
+                || SyncPlanWriter.UNKEYED.equals(action);
+        }
+        if (!valid) {
+            throw new IOException("Invalid plan entry '" + action + "' on line " + lineNumber);
+        }
+        return entry;
+    }
+
+    private void checkTarget(JSONObject target) throws IOException {
+        String plannedOrg = target != null ? target.optString("org", null) : null;
+        String plannedUrl = target != null ? target.optString("instanceUrl", null) : null;
+        if (!orgName.equals(plannedOrg)
+                || !String.valueOf(salesforceService.getInstanceUrl()).equals(plannedUrl)) {
+            throw new IOException(String.format(
+                "Plan was computed for org %s (%s), not %s (%s)",
+                plannedOrg, plannedUrl, orgName, salesforceService.getInstanceUrl()));
+        }
+    }
+
+    private static void add(int[] totals, int[] counts) {
+        totals[0] += counts[0];
+        totals[1] += counts[1];
+    }
+}
@@ -0,0 +1,118 @@
+// src/main/java/com/demo/adsync/sync/SyncPlanWriter.java
+package com.demo.adsync.sync;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Streams sync plan entries as JSON Lines or CSV, one entry per line.
+ * JSONL plans can be executed later by SyncPlanExecutor; CSV is for review.
+ */
+public class SyncPlanWriter implements Closeable {
+    public enum Format { JSONL, CSV }
+
+    public static final String CREATE = "CREATE";
+    public static final String UPDATE = "UPDATE";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String ORPHAN = "ORPHAN";
+    public static final String HEADER = "HEADER";
+    // Salesforce records the plan cannot key by GUID (blank or duplicated)
+    public static final String UNKEYED = "UNKEYED";
+
+    private final BufferedWriter writer;
+    private final Format format;
+
+    public SyncPlanWriter(Writer writer, Format format) throws IOException {
+        this.writer = new BufferedWriter(writer, 1 << 16);
+        this.format = format;
+        if (format == Format.CSV) {
+            this.writer.write("action,guid,id,changed_fields,record");
+            this.writer.newLine();
+        }
+    }
+
+    /**
+     * First line of every plan: the org it was computed against
+     */
+    public void writeHeader(String org, String instanceUrl) throws IOException {
+        JSONObject target = new JSONObject();
+        target.put("org", org);
+        target.put("instanceUrl", instanceUrl);
+        write(HEADER, null, null, null, target);
+    }
+
+    public void writeCreate(String guid, JSONObject record) throws IOException {
+        write(CREATE, guid, null, null, record);
+    }
+
+    public void writeUpdate(String guid, String id, List<String> changedFields,
+                            JSONObject record) throws IOException {
+        write(UPDATE, guid, id, changedFields, record);
+    }
+
+    public void writeUnchanged(String guid, String id) throws IOException {
+        write(UNCHANGED, guid, id, null, null);
+    }
+
+    public void writeOrphan(String guid, String id) throws IOException {
+        write(ORPHAN, guid, id, null, null);
+    }
+
+    public void writeUnkeyed(String guid, String id) throws IOException {
+        write(UNKEYED, guid, id, null, null);
+    }
+
+    private void write(String action, String guid, String id,
+                       List<String> changedFields, JSONObject record) throws IOException {
+        if (format == Format.JSONL) {
+            JSONObject line = new JSONObject();
+            line.put("action", action);
+            if (guid != null) {
+                line.put("guid", guid);
+            }
+            if (id != null) {
+                line.put("id", id);
+            }
+            if (changedFields != null) {
+                line.put("changed", new JSONArray(changedFields));
+            }
+            if (record != null) {
+                line.put("record", record);
+            }
+            writer.write(line.toString());
+        } else {
+            writer.write(action);
+            writer.write(',');
+            writer.write(csv(guid));
+            writer.write(',');
+            writer.write(csv(id));
+            writer.write(',');
+            writer.write(changedFields != null ? csv(String.join(";", changedFields)) : "");
+            writer.write(',');
+            writer.write(record != null ? csv(record.toString()) : "");
+        }
+        writer.newLine();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
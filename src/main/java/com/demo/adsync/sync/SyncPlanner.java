@@ -0,0 +1,188 @@
+// src/main/java/com/demo/adsync/sync/SyncPlanner.java
+package com.demo.adsync.sync;
+
+import com.demo.adsync.model.ADUser;
+import com.demo.adsync.service.LDAPService;
+import com.demo.adsync.service.SalesforceService;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dry-run sync: works out what performSync would change without writing
+ * to Salesforce.
+ *
+ * Existing AD_User__c records are prefetched with one paged query and kept
+ * only as an Id plus a 64-bit hash per field. LDAP users are then streamed
+ * page by page and compared against that index, so memory grows with the
+ * number of Salesforce records rather than with their contents.
+ */
+public class SyncPlanner {
+    private static final Logger logger = LoggerFactory.getLogger(SyncPlanner.class);
+
+    private LDAPService ldapService;
+    private SalesforceService salesforceService;
+    private String orgName;
+
+    public SyncPlanner(LDAPService ldapService,
+                       SalesforceService salesforceService,
+                       String orgName) {
+        this.ldapService = ldapService;
+        this.salesforceService = salesforceService;
+        this.orgName = orgName;
+    }
+
+    public static class Summary {
+        private int creates;
+        private int updates;
+        private int unchanged;
+        private int orphans;
+        private int unkeyed;
+
+        public int getCreates() { return creates; }
+        public int getUpdates() { return updates; }
+        public int getUnchanged() { return unchanged; }
+        public int getOrphans() { return orphans; }
+        public int getUnkeyed() { return unkeyed; }
+
+        @Override
+        public String toString() {
+            return String.format("creates=%d, updates=%d, unchanged=%d, orphans=%d, unkeyed=%d",
+                creates, updates, unchanged, orphans, unkeyed);
+        }
+    }
+
+    // What is known about an existing Salesforce record
+    private static class Existing {
+        final String id;
+        final long[] fieldHashes;
+
+        Existing(String id, long[] fieldHashes) {
+            this.id = id;
+            this.fieldHashes = fieldHashes;
+        }
+    }
+
+    /**
+     * Compute the plan and stream it to the writer. LDAP and Salesforce
+     * are expected to be connected.
+     */
+    public Summary plan(SyncPlanWriter writer) throws Exception {
+        String[] fields = salesforceService.getMapping().getFieldNames();
+        Summary summary = new Summary();
+
+        // Planned writes carry the plan time so they are replayed exactly
+        String plannedAt = SalesforceService.formatTimestamp(LocalDateTime.now());
+
+        try {
+            writer.writeHeader(orgName, salesforceService.getInstanceUrl());
+
+            // One paged read of what is already in Salesforce. Records without a
+            // GUID, or sharing one, cannot be matched and are reported separately.
+            Map<String, Existing> existing = new HashMap<>();
+            salesforceService.streamUserRecords(record -> {
+                long[] hashes = new long[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    hashes[i] = hash(record.optString(fields[i], ""));
+                }
+                String guid = record.optString("AD_Object_GUID__c", "");
+                String id = record.getString("Id");
+                try {
+                    if (guid.isEmpty()) {
+                        writer.writeUnkeyed(guid, id);
+                        summary.unkeyed++;
+                        return;
+                    }
+                    Existing duplicate = existing.put(guid, new Existing(id, hashes));
+                    if (duplicate != null) {
+                        writer.writeUnkeyed(guid, duplicate.id);
+                        summary.unkeyed++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.info("Prefetched {} AD_User__c records", existing.size());
+            if (summary.unkeyed > 0) {
+                logger.warn("{} AD_User__c records have a blank or duplicate AD_Object_GUID__c",
+                    summary.unkeyed);
+            }
+
+            ldapService.streamUsers(user -> {
+                try {
+                    planUser(user, fields, existing, plannedAt, writer, summary);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            // Anything not claimed by an LDAP user no longer exists in the directory
+            for (Map.Entry<String, Existing> orphan : existing.entrySet()) {
+                writer.writeOrphan(orphan.getKey(), orphan.getValue().id);
+                summary.orphans++;
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        logger.info("Sync plan: {}", summary);
+        return summary;
+    }
+
+    private void planUser(ADUser user, String[] fields, Map<String, Existing> existing,
+                          String plannedAt, SyncPlanWriter writer,
+                          Summary summary) throws IOException {
+        Existing current = existing.remove(user.getObjectGuid());
+
+        if (current == null) {
+            JSONObject record = salesforceService.buildRecord(user);
+            record.put("Last_Synced__c", plannedAt);
+            writer.writeCreate(user.getObjectGuid(), record);
+            summary.creates++;
+            return;
+        }
+
+        // Mapped values line up with fields, so compare them directly
+        String[] values = salesforceService.getMapping().valuesOf(user);
+        List<String> changed = null;
+        JSONObject changes = null;
+        for (int i = 0; i < fields.length; i++) {
+            // Unmapped (null) values are left untouched by a real sync, so never planned
+            if (values[i] != null && hash(values[i]) != current.fieldHashes[i]) {
+                if (changed == null) {
+                    changed = new ArrayList<>();
+                    changes = new JSONObject();
+                }
+                changed.add(fields[i]);
+                changes.put(fields[i], values[i]);
+            }
+        }
+
+        if (changed == null) {
+            writer.writeUnchanged(user.getObjectGuid(), current.id);
+            summary.unchanged++;
+        } else {
+            changes.put("Last_Synced__c", plannedAt);
+            writer.writeUpdate(user.getObjectGuid(), current.id, changed, changes);
+            summary.updates++;
+        }
+    }
+
+    // 64-bit FNV-1a; collisions are negligible at a few million field values
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}